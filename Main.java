@@ -0,0 +1,75 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+public class Main {
+    public static void main(String[] args) {
+        // Create a music recommendation system
+        MusicRecommendationSystem system = new MusicRecommendationSystem();
+
+        // Add some music items to the catalog
+        system.addMusicItem(new MusicItem("item1", "Song 1", "Artist 1", "Genre 1"));
+        system.addMusicItem(new MusicItem("item2", "Song 2", "Artist 2", "Genre 2"));
+        system.addMusicItem(new MusicItem("item3", "Song 3", "Artist 1", "Genre 1"));
+        system.addMusicItem(new MusicItem("item4", "Song 4", "Artist 3", "Genre 3"));
+
+        // Add some user ratings
+        system.addUserRating("user1", "item1", 4.5);
+        system.addUserRating("user1", "item2", 3.8);
+        system.addUserRating("user1", "item3", 4.0);
+        system.addUserRating("user2", "item2", 4.2);
+        system.addUserRating("user2", "item3", 3.9);
+        system.addUserRating("user2", "item4", 4.1);
+        // Add some item similarities
+        system.addItemSimilarity("item1", "item3", 0.8);
+        system.addItemSimilarity("item2", "item4", 0.7);
+
+        // Recommend items for a user
+        System.out.println("Recommendations for user1:");
+        for (MusicItem item : system.recommendItems("user1", 3)) {
+            System.out.println(item);
+        }
+
+        System.out.println("\nRecommendations for user2:");
+        for (MusicItem item : system.recommendItems("user2", 3)) {
+            System.out.println(item);
+        }
+
+        // Cold-start user: recommend from the catalog graph
+        MusicCatalog catalog = new MusicCatalog();
+        catalog.addSong("Song 1", "Artist 1", "Album 1", "Genre 1");
+        catalog.addSong("Song 2", "Artist 2", "Album 2", "Genre 2");
+        catalog.addSong("Song 3", "Artist 1", "Album 1", "Genre 1");
+        catalog.addSong("Song 4", "Artist 3", "Album 2", "Genre 3");
+        catalog.precomputeWalkSegments(16, 8);
+        system.setCatalog(catalog);
+        system.addUserRating("user3", "item1", 5.0);
+
+        System.out.println("\nRecommendations for user3:");
+        for (MusicItem item : system.recommendItems("user3", 3)) {
+            System.out.println(item);
+        }
+
+        // Stream rating events through the micro-batching ingestor
+        BlockingQueue<RatingEvent> events = new LinkedBlockingQueue<>();
+        Thread producer = new Thread(() -> {
+            Random random = new Random(42);
+            for (int i = 0; i < 50000; i++) {
+                String userId = "user" + (1 + random.nextInt(50));
+                String itemId = "item" + (1 + random.nextInt(4));
+                double rating = 1.0 + random.nextInt(9) * 0.5;
+                events.add(new RatingEvent(userId, itemId, rating, System.currentTimeMillis()));
+            }
+            events.add(RatingEventIngestor.END_OF_STREAM);
+        });
+        RatingEventIngestor ingestor = new RatingEventIngestor(system, 512, 20);
+        producer.start();
+        try {
+            ingestor.ingestQueue(events);
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("\nRating event ingestion:");
+        ingestor.printStats();
+    }
+}
@@ -1,4 +1,6 @@
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
 
 // Trie Node
 class TrieNode {
@@ -66,7 +68,8 @@ class Graph {
     }
 
     void addVertex(String vertex) {
-        adjacencyList.put(vertex, new ArrayList<>());
+        // Artists, albums and genres are shared between songs, keep their existing edges
+        adjacencyList.putIfAbsent(vertex, new ArrayList<>());
     }
 
     void addEdge(String vertex1, String vertex2) {
@@ -74,6 +77,25 @@ class Graph {
         adjacencyList.get(vertex2).add(vertex1);
     }
 
+    // A song whose artist and album share a name has two edges to that vertex, remove both
+    void removeEdge(String vertex1, String vertex2) {
+        adjacencyList.get(vertex1).removeIf(vertex2::equals);
+        adjacencyList.get(vertex2).removeIf(vertex1::equals);
+    }
+
+    boolean hasVertex(String vertex) {
+        return adjacencyList.containsKey(vertex);
+    }
+
+    int degree(String vertex) {
+        return adjacencyList.getOrDefault(vertex, Collections.emptyList()).size();
+    }
+
+    // Snapshot of the graph as int-indexed adjacency arrays for random walks
+    CompactGraph toCompactGraph(Set<String> songVertices) {
+        return new CompactGraph(adjacencyList, songVertices);
+    }
+
     void breadthFirstSearch(String startVertex) {
         Set<String> visited = new HashSet<>();
         Queue<String> queue = new LinkedList<>();
@@ -101,19 +123,169 @@ class Graph {
 
         // Remove references to the vertex from other vertices' adjacency lists
         for (List<String> edges : adjacencyList.values()) {
-            edges.remove(vertex);
+            edges.removeIf(vertex::equals);
+        }
+    }
+}
+
+// Compact Graph (CSR): neighbors of vertex v are neighbors[offsets[v] .. offsets[v + 1])
+class CompactGraph {
+    final String[] vertices;
+    final int[] offsets;
+    final int[] neighbors;
+    final boolean[] isSong;
+    private final Map<String, Integer> vertexIndex;
+
+    CompactGraph(Map<String, List<String>> adjacencyList, Set<String> songVertices) {
+        int n = adjacencyList.size();
+        vertices = new String[n];
+        vertexIndex = new HashMap<>();
+        isSong = new boolean[n];
+        int v = 0;
+        int edgeCount = 0;
+        for (Map.Entry<String, List<String>> entry : adjacencyList.entrySet()) {
+            vertices[v] = entry.getKey();
+            vertexIndex.put(entry.getKey(), v);
+            isSong[v] = songVertices.contains(entry.getKey());
+            edgeCount += entry.getValue().size();
+            v++;
+        }
+        offsets = new int[n + 1];
+        neighbors = new int[edgeCount];
+        for (v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v];
+            for (String neighbor : adjacencyList.get(vertices[v])) {
+                neighbors[offsets[v + 1]++] = vertexIndex.get(neighbor);
+            }
+        }
+    }
+
+    int size() {
+        return vertices.length;
+    }
+
+    int indexOf(String vertex) {
+        return vertexIndex.getOrDefault(vertex, -1);
+    }
+
+    int randomNeighbor(int v, ThreadLocalRandom random) {
+        int degree = offsets[v + 1] - offsets[v];
+        return degree == 0 ? -1 : neighbors[offsets[v] + random.nextInt(degree)];
+    }
+}
+
+// Random Walk Recommender: Monte-Carlo random walks with restart from seed songs.
+// Visit frequencies of song vertices approximate their personalized PageRank.
+class RandomWalkRecommender {
+    private final CompactGraph graph;
+    private final double restartProbability;
+    private final int walksPerSeed;
+    // walkSegments[v][s] holds a precomputed walk (without restart) starting after v
+    private int[][][] walkSegments;
+
+    RandomWalkRecommender(CompactGraph graph, double restartProbability, int walksPerSeed) {
+        this.graph = graph;
+        this.restartProbability = restartProbability;
+        this.walksPerSeed = walksPerSeed;
+    }
+
+    // Precomputes segmentsPerVertex walks of segmentLength steps from every vertex in parallel.
+    // Queries then stitch segments together instead of sampling every step.
+    void precomputeWalkSegments(int segmentsPerVertex, int segmentLength) {
+        int[][][] segments = new int[graph.size()][][];
+        IntStream.range(0, graph.size()).parallel().forEach(v -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            segments[v] = new int[segmentsPerVertex][];
+            for (int s = 0; s < segmentsPerVertex; s++) {
+                int[] path = new int[segmentLength];
+                int current = v;
+                int length = 0;
+                while (length < segmentLength && (current = graph.randomNeighbor(current, random)) >= 0) {
+                    path[length++] = current;
+                }
+                segments[v][s] = Arrays.copyOf(path, length);
+            }
+        });
+        walkSegments = segments;
+    }
+
+    List<String> recommend(List<String> seedSongs, Set<String> excludedSongs, int k) {
+        int[] seeds = seedSongs.stream().mapToInt(graph::indexOf).filter(v -> v >= 0).distinct().toArray();
+        if (seeds.length == 0) {
+            return new ArrayList<>();
+        }
+
+        // Walks are independent, so each worker counts visits into its own array
+        int[] visits = IntStream.range(0, seeds.length * walksPerSeed).parallel().collect(
+                () -> new int[graph.size()],
+                (counts, walk) -> walk(seeds[walk % seeds.length], counts, ThreadLocalRandom.current()),
+                (a, b) -> {
+                    for (int v = 0; v < a.length; v++) {
+                        a[v] += b[v];
+                    }
+                });
+
+        PriorityQueue<Integer> topSongs = new PriorityQueue<>((a, b) -> Integer.compare(visits[a], visits[b]));
+        for (int v = 0; v < visits.length; v++) {
+            if (visits[v] > 0 && graph.isSong[v] && !excludedSongs.contains(graph.vertices[v])) {
+                topSongs.offer(v);
+                if (topSongs.size() > k) {
+                    topSongs.poll();
+                }
+            }
+        }
+        LinkedList<String> result = new LinkedList<>();
+        while (!topSongs.isEmpty()) {
+            result.addFirst(graph.vertices[topSongs.poll()]);
+        }
+        return result;
+    }
+
+    // The first hop from the seed is always sampled fresh: walks average only
+    // 1 / restartProbability steps, so starting them all from the seed's few stored segments
+    // would mostly recount those segments. Reusing segments further out trades some
+    // correlation between walks for fewer random draws.
+    private void walk(int seed, int[] visits, ThreadLocalRandom random) {
+        int current = seed;
+        boolean firstHop = true;
+        while (random.nextDouble() >= restartProbability) {
+            if (!firstHop && walkSegments != null && walkSegments[current].length > 0) {
+                // Follow a stored segment until it ends or the walk restarts
+                int[] segment = walkSegments[current][random.nextInt(walkSegments[current].length)];
+                for (int i = 0; i < segment.length; i++) {
+                    current = segment[i];
+                    visits[current]++;
+                    if (i + 1 < segment.length && random.nextDouble() < restartProbability) {
+                        return;
+                    }
+                }
+            } else {
+                current = graph.randomNeighbor(current, random);
+                if (current < 0) {
+                    return;
+                }
+                visits[current]++;
+            }
+            firstHop = false;
         }
     }
 }
 
 // Music Catalog
 class MusicCatalog {
+    private static final double RESTART_PROBABILITY = 0.15;
+    private static final int WALKS_PER_SEED = 2000;
+
     private Trie songTrie;
     private Graph catalogGraph;
     private Map<String, Song> songMetadata;
     private Map<String, Set<String>> artistMetadata;
     private Map<String, Set<String>> albumMetadata;
     private Map<String, Set<String>> genreMetadata;
+    private RandomWalkRecommender walkRecommender;
+    // Segment settings kept so segments are recomputed whenever the recommender is rebuilt
+    private int segmentsPerVertex;
+    private int segmentLength;
 
     MusicCatalog() {
         songTrie = new Trie();
@@ -137,6 +309,7 @@ class MusicCatalog {
         catalogGraph.addEdge(title, artist);
         catalogGraph.addEdge(title, album);
         catalogGraph.addEdge(title, genre);
+        walkRecommender = null;
 
         artistMetadata.computeIfAbsent(artist, k -> new HashSet<>()).add(title);
         albumMetadata.computeIfAbsent(album, k -> new HashSet<>()).add(title);
@@ -167,6 +340,12 @@ class MusicCatalog {
             artistMetadata.get(song.artist).remove(title);
             albumMetadata.get(song.album).remove(title);
             genreMetadata.get(song.genre).remove(title);
+            catalogGraph.removeEdge(title, song.artist);
+            catalogGraph.removeEdge(title, song.album);
+            catalogGraph.removeEdge(title, song.genre);
+            String oldArtist = song.artist;
+            String oldAlbum = song.album;
+            String oldGenre = song.genre;
 
             // Update song metadata
             song.artist = newArtist;
@@ -177,6 +356,15 @@ class MusicCatalog {
             artistMetadata.computeIfAbsent(newArtist, k -> new HashSet<>()).add(title);
             albumMetadata.computeIfAbsent(newAlbum, k -> new HashSet<>()).add(title);
             genreMetadata.computeIfAbsent(newGenre, k -> new HashSet<>()).add(title);
+
+            catalogGraph.addVertex(newArtist);
+            catalogGraph.addVertex(newAlbum);
+            catalogGraph.addVertex(newGenre);
+            catalogGraph.addEdge(title, newArtist);
+            catalogGraph.addEdge(title, newAlbum);
+            catalogGraph.addEdge(title, newGenre);
+            removeOrphanedVertices(List.of(oldArtist, oldAlbum, oldGenre));
+            walkRecommender = null;
         }
     }
 
@@ -192,112 +380,51 @@ class MusicCatalog {
         songTrie.search(title);
         songMetadata.remove(title);
 
-        // Remove song and associated vertices from the graph
+        // Remove song and associated vertices no other song links to from the graph
         catalogGraph.removeVertex(title);
-        catalogGraph.removeVertex(song.artist);
-        catalogGraph.removeVertex(song.album);
-        catalogGraph.removeVertex(song.genre);
+        removeOrphanedVertices(List.of(song.artist, song.album, song.genre));
+        walkRecommender = null;
 
         // Remove song from metadata maps
         artistMetadata.get(song.artist).remove(title);
         albumMetadata.get(song.album).remove(title);
         genreMetadata.get(song.genre).remove(title);
     }
-}
 
-public class MusicCatalogMainFinal {
-    public static void main(String[] args) {
-        MusicCatalog catalog = new MusicCatalog();
-
-        // Add sample items to the catalog
-        catalog.addSong("Song1", "Artist1", "Album1", "Genre1");
-        catalog.addSong("Song2", "Artist1", "Album2", "Genre2");
-        catalog.addSong("Song3", "Artist2", "Album1", "Genre1");
-        // Add more sample items here...
-        catalog.addSong("Song4", "Artist3", "Album3", "Genre3");
-        catalog.addSong("Song5", "Artist2", "Album2", "Genre1");
-        catalog.addSong("Song6", "Artist4", "Album1", "Genre2");
-        catalog.addSong("Song7", "Artist5", "Album3", "Genre3");
-        catalog.addSong("Song8", "Artist1", "Album1", "Genre2");
-        catalog.addSong("Song9", "Artist6", "Album2", "Genre1");
-        catalog.addSong("Song10", "Artist3", "Album3", "Genre3");
-        catalog.addSong("Song11", "Artist2", "Album1", "Genre1");
-        catalog.addSong("Song12", "Artist4", "Album2", "Genre2");
-        catalog.addSong("Song13", "Artist5", "Album3", "Genre3");
-        catalog.addSong("Song14", "Artist1", "Album1", "Genre2");
-        catalog.addSong("Song15", "Artist6", "Album2", "Genre1");
-
-        catalog.deleteSong("Song14");
-        catalog.updateSongMetadata("Song12", "Arijit", "Fitoor", "RomCom");
-
-        // Interactive terminal interface
-        Scanner scanner = new Scanner(System.in);
-        while (true) {
-            // System.out.println("Select an option:");
-            // System.out.println("1. Search for a song");
-            // System.out.println("2. Search for an album");
-            // System.out.println("3. Exit");
-
-            // int option = scanner.nextInt();
-            int option = 1;
-
-            if (option == 1) {
-                System.out.println("Select search criteria:");
-                System.out.println("a. Search by title");
-                System.out.println("b. Search by genre");
-                System.out.println("c. Search by singer");
-                System.out.println("d. Exit!");
-
-                char searchOption = scanner.next().charAt(0);
-
-                if (searchOption == 'a') {
-                    System.out.print("Enter song title: ");
-                    String title = scanner.next();
-                    if (catalog.searchSong(title)) {
-                        System.out.println("Song found!");
-                    } else {
-                        System.out.println("Song not found!");
-                    }
-                } else if (searchOption == 'b') {
-                    System.out.print("Enter genre: ");
-                    String genre = scanner.next();
-                    List<String> songs = new ArrayList<>(catalog.getSongsByGenre(genre));
-                    if (!songs.isEmpty()) {
-                        System.out.println("Songs in genre '" + genre + "':");
-                        songs.forEach(System.out::println);
-                    } else {
-                        System.out.println("No songs found in genre '" + genre + "'");
-                    }
-                } else if (searchOption == 'c') {
-                    System.out.print("Enter artist: ");
-                    String artist = scanner.next();
-                    List<String> songs = new ArrayList<>(catalog.getSongsByArtist(artist));
-                    if (!songs.isEmpty()) {
-                        System.out.println("Songs by artist '" + artist + "':");
-                        songs.forEach(System.out::println);
-                    } else {
-                        System.out.println("No songs found by artist '" + artist + "'");
-                    }
-                } else if (searchOption == 'd') {
-                    break;
-                } else {
-                    System.out.println("Invalid option");
-                }
-            } else if (option == 2) {
-                System.out.print("Enter album name: ");
-                String album = scanner.next();
-                List<String> songs = new ArrayList<>(catalog.getSongsByAlbum(album));
-                if (!songs.isEmpty()) {
-                    System.out.println("Songs in album '" + album + "':");
-                    songs.forEach(System.out::println);
-                } else {
-                    System.out.println("No songs found in album '" + album + "'");
-                }
-            } else if (option == 3) {
-                break; // Exit the program
-            } else {
-                System.out.println("Invalid option");
+    // Removes artist, album or genre vertices that no song links to anymore
+    private void removeOrphanedVertices(List<String> vertices) {
+        for (String vertex : vertices) {
+            if (catalogGraph.hasVertex(vertex) && catalogGraph.degree(vertex) == 0) {
+                catalogGraph.removeVertex(vertex);
+            }
+        }
+    }
+
+    // Precomputes walk segments over the current graph; they are recomputed with the same
+    // settings the next time recommendations are requested after the catalog changes
+    void precomputeWalkSegments(int segmentsPerVertex, int segmentLength) {
+        this.segmentsPerVertex = segmentsPerVertex;
+        this.segmentLength = segmentLength;
+        getWalkRecommender().precomputeWalkSegments(segmentsPerVertex, segmentLength);
+    }
+
+    // Top-k songs by personalized PageRank from the seed songs, excluding the seeds
+    List<String> recommendSongs(List<String> seedSongs, int k) {
+        return recommendSongs(seedSongs, new HashSet<>(seedSongs), k);
+    }
+
+    List<String> recommendSongs(List<String> seedSongs, Set<String> excludedSongs, int k) {
+        return getWalkRecommender().recommend(seedSongs, excludedSongs, k);
+    }
+
+    private RandomWalkRecommender getWalkRecommender() {
+        if (walkRecommender == null) {
+            walkRecommender = new RandomWalkRecommender(catalogGraph.toCompactGraph(songMetadata.keySet()),
+                                                        RESTART_PROBABILITY, WALKS_PER_SEED);
+            if (segmentsPerVertex > 0 && segmentLength > 0) {
+                walkRecommender.precomputeWalkSegments(segmentsPerVertex, segmentLength);
             }
         }
+        return walkRecommender;
     }
 }
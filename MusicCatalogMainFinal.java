@@ -0,0 +1,101 @@
+import java.util.*;
+
+public class MusicCatalogMainFinal {
+    public static void main(String[] args) {
+        MusicCatalog catalog = new MusicCatalog();
+
+        // Add sample items to the catalog
+        catalog.addSong("Song1", "Artist1", "Album1", "Genre1");
+        catalog.addSong("Song2", "Artist1", "Album2", "Genre2");
+        catalog.addSong("Song3", "Artist2", "Album1", "Genre1");
+        // Add more sample items here...
+        catalog.addSong("Song4", "Artist3", "Album3", "Genre3");
+        catalog.addSong("Song5", "Artist2", "Album2", "Genre1");
+        catalog.addSong("Song6", "Artist4", "Album1", "Genre2");
+        catalog.addSong("Song7", "Artist5", "Album3", "Genre3");
+        catalog.addSong("Song8", "Artist1", "Album1", "Genre2");
+        catalog.addSong("Song9", "Artist6", "Album2", "Genre1");
+        catalog.addSong("Song10", "Artist3", "Album3", "Genre3");
+        catalog.addSong("Song11", "Artist2", "Album1", "Genre1");
+        catalog.addSong("Song12", "Artist4", "Album2", "Genre2");
+        catalog.addSong("Song13", "Artist5", "Album3", "Genre3");
+        catalog.addSong("Song14", "Artist1", "Album1", "Genre2");
+        catalog.addSong("Song15", "Artist6", "Album2", "Genre1");
+
+        catalog.deleteSong("Song14");
+        catalog.updateSongMetadata("Song12", "Arijit", "Fitoor", "RomCom");
+
+        catalog.precomputeWalkSegments(16, 8);
+        System.out.println("Songs similar to Song1 and Song3: " + catalog.recommendSongs(List.of("Song1", "Song3"), 5));
+
+        // Interactive terminal interface
+        Scanner scanner = new Scanner(System.in);
+        while (true) {
+            // System.out.println("Select an option:");
+            // System.out.println("1. Search for a song");
+            // System.out.println("2. Search for an album");
+            // System.out.println("3. Exit");
+
+            // int option = scanner.nextInt();
+            int option = 1;
+
+            if (option == 1) {
+                System.out.println("Select search criteria:");
+                System.out.println("a. Search by title");
+                System.out.println("b. Search by genre");
+                System.out.println("c. Search by singer");
+                System.out.println("d. Exit!");
+
+                char searchOption = scanner.next().charAt(0);
+
+                if (searchOption == 'a') {
+                    System.out.print("Enter song title: ");
+                    String title = scanner.next();
+                    if (catalog.searchSong(title)) {
+                        System.out.println("Song found!");
+                    } else {
+                        System.out.println("Song not found!");
+                    }
+                } else if (searchOption == 'b') {
+                    System.out.print("Enter genre: ");
+                    String genre = scanner.next();
+                    List<String> songs = new ArrayList<>(catalog.getSongsByGenre(genre));
+                    if (!songs.isEmpty()) {
+                        System.out.println("Songs in genre '" + genre + "':");
+                        songs.forEach(System.out::println);
+                    } else {
+                        System.out.println("No songs found in genre '" + genre + "'");
+                    }
+                } else if (searchOption == 'c') {
+                    System.out.print("Enter artist: ");
+                    String artist = scanner.next();
+                    List<String> songs = new ArrayList<>(catalog.getSongsByArtist(artist));
+                    if (!songs.isEmpty()) {
+                        System.out.println("Songs by artist '" + artist + "':");
+                        songs.forEach(System.out::println);
+                    } else {
+                        System.out.println("No songs found by artist '" + artist + "'");
+                    }
+                } else if (searchOption == 'd') {
+                    break;
+                } else {
+                    System.out.println("Invalid option");
+                }
+            } else if (option == 2) {
+                System.out.print("Enter album name: ");
+                String album = scanner.next();
+                List<String> songs = new ArrayList<>(catalog.getSongsByAlbum(album));
+                if (!songs.isEmpty()) {
+                    System.out.println("Songs in album '" + album + "':");
+                    songs.forEach(System.out::println);
+                } else {
+                    System.out.println("No songs found in album '" + album + "'");
+                }
+            } else if (option == 3) {
+                break; // Exit the program
+            } else {
+                System.out.println("Invalid option");
+            }
+        }
+    }
+}
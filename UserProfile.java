@@ -1,42 +1,10 @@
 import java.util.*;
+import java.util.concurrent.*;
+import java.io.*;
 import java.security.*;
 import javax.crypto.*;
 import javax.crypto.spec.SecretKeySpec;
 
-public class Main {
-    public static void main(String[] args) {
-        // Create a music recommendation system
-        MusicRecommendationSystem system = new MusicRecommendationSystem();
-
-        // Add some music items to the catalog
-        system.addMusicItem(new MusicItem("item1", "Song 1", "Artist 1", "Genre 1"));
-        system.addMusicItem(new MusicItem("item2", "Song 2", "Artist 2", "Genre 2"));
-        system.addMusicItem(new MusicItem("item3", "Song 3", "Artist 1", "Genre 1"));
-        system.addMusicItem(new MusicItem("item4", "Song 4", "Artist 3", "Genre 3"));
-
-        // Add some user ratings
-        system.addUserRating("user1", "item1", 4.5);
-        system.addUserRating("user1", "item2", 3.8);
-        system.addUserRating("user1", "item3", 4.0);
-        system.addUserRating("user2", "item2", 4.2);
-        system.addUserRating("user2", "item3", 3.9);
-        system.addUserRating("user2", "item4", 4.1);
-        // Add some item similarities
-        system.addItemSimilarity("item1", "item3", 0.8);
-        system.addItemSimilarity("item2", "item4", 0.7);
-
-        // Recommend items for a user
-        System.out.println("Recommendations for user1:");
-        for (MusicItem item : system.recommendItems("user1", 3)) {
-            System.out.println(item);
-        }
-
-        System.out.println("\nRecommendations for user2:");
-        for (MusicItem item : system.recommendItems("user2", 3)) {
-            System.out.println(item);
-        }
-    }
-}
 class MusicItem {
     private String itemId;
     private String title;
@@ -65,14 +33,19 @@ class MusicItem {
     public String getGenre() {
         return genre;
     }
+
+    @Override
+    public String toString() {
+        return title + " by " + artist + " (" + genre + ")";
+    }
 }
 
 class UserProfile {
     public String userId;
     private LinkedList<MusicItem> listeningHistory;
-    private HashMap<String, Integer> genrePreferences;
-    private HashMap<String, Integer> artistPreferences;
-    private HashMap<String, Integer> songPreferences;
+    private HashMap<String, Double> genrePreferences;
+    private HashMap<String, Double> artistPreferences;
+    private HashMap<String, Double> songPreferences;
     private PriorityQueue<Preference<String>> topGenrePreferences;
     private PriorityQueue<Preference<String>> topArtistPreferences;
     private PriorityQueue<Preference<String>> topSongPreferences;
@@ -83,22 +56,22 @@ class UserProfile {
         this.genrePreferences = new HashMap<>();
         this.artistPreferences = new HashMap<>();
         this.songPreferences = new HashMap<>();
-        this.topGenrePreferences = new PriorityQueue<>((a, b) -> a.getCount() - b.getCount());
-        this.topArtistPreferences = new PriorityQueue<>((a, b) -> a.getCount() - b.getCount());
-        this.topSongPreferences = new PriorityQueue<>((a, b) -> a.getCount() - b.getCount());
+        this.topGenrePreferences = new PriorityQueue<>((a, b) -> Double.compare(a.getWeight(), b.getWeight()));
+        this.topArtistPreferences = new PriorityQueue<>((a, b) -> Double.compare(a.getWeight(), b.getWeight()));
+        this.topSongPreferences = new PriorityQueue<>((a, b) -> Double.compare(a.getWeight(), b.getWeight()));
     }
 
-    private void updateTopPreference(String item, Map<String, Integer> preferences, PriorityQueue<Preference<String>> topPreferences) {
-        int count = preferences.get(item);
-        topPreferences.offer(new Preference<>(item, count));
+    private void updateTopPreference(String item, Map<String, Double> preferences, PriorityQueue<Preference<String>> topPreferences) {
+        double weight = preferences.get(item);
+        topPreferences.offer(new Preference<>(item, weight));
         if (topPreferences.size() > 10) {
             topPreferences.poll();
         }
     }
-    public Map<String, Integer> getGenrePreferences() {
+    public Map<String, Double> getGenrePreferences() {
         return genrePreferences;
     }
-    public Map<String, Integer> getSongPreferences() {
+    public Map<String, Double> getSongPreferences() {
         return songPreferences;
     }
 
@@ -120,45 +93,249 @@ class UserProfile {
     public void addToListeningHistory(MusicItem musicItem) {
         listeningHistory.addFirst(musicItem);
     }
-    public void updatePreferences(MusicItem musicItem) {
-        updateGenrePreference(musicItem.getGenre());
-        updateArtistPreference(musicItem.getArtist());
-        updateSongPreference(musicItem.getTitle());
-    }
-    private void updateGenrePreference(String genre) {
-        genrePreferences.merge(genre, 1, Integer::sum);
-        updateTopPreference(genre, genrePreferences, topGenrePreferences);
-    }
-
-    private void updateArtistPreference(String artist) {
-        artistPreferences.merge(artist, 1, Integer::sum);
-        updateTopPreference(artist, artistPreferences, topArtistPreferences);
+    // Applies a micro-batch of rated items: history and preference weights are updated
+    // for every item, but the top preference heaps only once per distinct key in the batch.
+    public void applyRatings(List<MusicItem> musicItems, List<Double> weights) {
+        Set<String> genres = new HashSet<>();
+        Set<String> artists = new HashSet<>();
+        Set<String> songs = new HashSet<>();
+        for (int i = 0; i < musicItems.size(); i++) {
+            MusicItem musicItem = musicItems.get(i);
+            double weight = weights.get(i);
+            addToListeningHistory(musicItem);
+            accumulatePreferences(musicItem, weight);
+            genres.add(musicItem.getGenre());
+            artists.add(musicItem.getArtist());
+            songs.add(musicItem.getTitle());
+        }
+        for (String genre : genres) {
+            updateTopPreference(genre, genrePreferences, topGenrePreferences);
+        }
+        for (String artist : artists) {
+            updateTopPreference(artist, artistPreferences, topArtistPreferences);
+        }
+        for (String song : songs) {
+            updateTopPreference(song, songPreferences, topSongPreferences);
+        }
     }
 
-    private void updateSongPreference(String song) {
-        songPreferences.merge(song, 1, Integer::sum);
-        updateTopPreference(song, songPreferences, topSongPreferences);
+    // Adds the rating weight to the genre, artist and song preferences without touching the heaps
+    private void accumulatePreferences(MusicItem musicItem, double weight) {
+        genrePreferences.merge(musicItem.getGenre(), weight, Double::sum);
+        artistPreferences.merge(musicItem.getArtist(), weight, Double::sum);
+        songPreferences.merge(musicItem.getTitle(), weight, Double::sum);
     }
 
     private static class Preference<T> {
         private T value;
-        private int count;
+        private double weight;
 
-        public Preference(T value, int count) {
+        public Preference(T value, double weight) {
             this.value = value;
-            this.count = count;
+            this.weight = weight;
         }
 
         public T getValue() {
             return value;
         }
 
-        public int getCount() {
-            return count;
+        public double getWeight() {
+            return weight;
         }
     }
 }
 
+class RatingEvent {
+    public static final double MAX_RATING = 5.0;
+
+    private String userId;
+    private String itemId;
+    private double rating;
+    private long timestamp;
+
+    public RatingEvent(String userId, String itemId, double rating, long timestamp) {
+        this.userId = userId;
+        this.itemId = itemId;
+        this.rating = rating;
+        this.timestamp = timestamp;
+    }
+
+    // Parses a "userId,itemId,rating,timestampMillis" line
+    public static RatingEvent parse(String line) {
+        String[] fields = line.split(",");
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Malformed rating event: " + line);
+        }
+        RatingEvent event = new RatingEvent(fields[0].trim(), fields[1].trim(),
+                                            Double.parseDouble(fields[2].trim()), Long.parseLong(fields[3].trim()));
+        if (!event.hasValidRating()) {
+            throw new IllegalArgumentException("Rating out of range: " + line);
+        }
+        return event;
+    }
+
+    // Ratings weight preferences and similarities, so they must lie in [0, MAX_RATING]
+    public boolean hasValidRating() {
+        return rating >= 0.0 && rating <= MAX_RATING;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
+
+// Reads rating events from a file or a queue, groups them into per-user micro-batches
+// and applies each batch to the recommendation system in one step.
+class RatingEventIngestor {
+    public static final RatingEvent END_OF_STREAM = new RatingEvent(null, null, 0.0, 0L);
+
+    private MusicRecommendationSystem system;
+    private int maxBatchSize;
+    private long maxBatchDelayMillis;
+    private Map<String, List<RatingEvent>> pendingEvents;
+    // Per pending event, the wall-clock time its freshness lag is measured from
+    private Map<String, List<Long>> pendingLagStarts;
+    private int pendingCount;
+
+    private long eventsApplied;
+    private long eventsDropped;
+    private long batchesApplied;
+    private long startNanos;
+    private long endNanos;
+    private long totalLagMillis;
+    private long maxLagMillis;
+
+    public RatingEventIngestor(MusicRecommendationSystem system, int maxBatchSize, long maxBatchDelayMillis) {
+        this.system = system;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchDelayMillis = maxBatchDelayMillis;
+        this.pendingEvents = new LinkedHashMap<>();
+        this.pendingLagStarts = new HashMap<>();
+    }
+
+    public void ingestFile(String path) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader(path))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    // Replayed events carry historical timestamps, so measure lag from ingestion
+                    offer(RatingEvent.parse(line), System.currentTimeMillis());
+                } catch (IllegalArgumentException e) {
+                    eventsDropped++;
+                }
+                if (pendingCount >= maxBatchSize) {
+                    flush();
+                }
+            }
+        }
+        flush();
+    }
+
+    // Consumes the queue until END_OF_STREAM; a batch is flushed when it is full or when
+    // its oldest event has waited maxBatchDelayMillis, whichever comes first.
+    public void ingestQueue(BlockingQueue<RatingEvent> queue) throws InterruptedException {
+        long batchDeadline = Long.MAX_VALUE;
+        while (true) {
+            RatingEvent event;
+            if (pendingCount == 0) {
+                event = queue.take();
+            } else {
+                event = queue.poll(Math.max(0, batchDeadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            }
+            if (event == END_OF_STREAM) {
+                flush();
+                return;
+            }
+            if (event != null) {
+                if (pendingCount == 0) {
+                    batchDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxBatchDelayMillis);
+                }
+                offer(event, event.getTimestamp());
+            }
+            if (pendingCount >= maxBatchSize || (pendingCount > 0 && System.nanoTime() >= batchDeadline)) {
+                flush();
+            }
+        }
+    }
+
+    private void offer(RatingEvent event, long lagStart) {
+        if (startNanos == 0) {
+            startNanos = System.nanoTime();
+        }
+        if (!event.hasValidRating() || !system.containsMusicItem(event.getItemId())) {
+            eventsDropped++;
+            return;
+        }
+        pendingEvents.computeIfAbsent(event.getUserId(), k -> new ArrayList<>()).add(event);
+        pendingLagStarts.computeIfAbsent(event.getUserId(), k -> new ArrayList<>()).add(lagStart);
+        pendingCount++;
+    }
+
+    private void flush() {
+        for (Map.Entry<String, List<RatingEvent>> entry : pendingEvents.entrySet()) {
+            system.applyRatingBatch(entry.getKey(), entry.getValue());
+            long appliedAt = System.currentTimeMillis();
+            for (long lagStart : pendingLagStarts.get(entry.getKey())) {
+                long lag = Math.max(0, appliedAt - lagStart);
+                totalLagMillis += lag;
+                maxLagMillis = Math.max(maxLagMillis, lag);
+            }
+            eventsApplied += entry.getValue().size();
+            batchesApplied++;
+        }
+        pendingEvents.clear();
+        pendingLagStarts.clear();
+        pendingCount = 0;
+        endNanos = System.nanoTime();
+    }
+
+    public long getEventsApplied() {
+        return eventsApplied;
+    }
+
+    public long getEventsDropped() {
+        return eventsDropped;
+    }
+
+    public double getEventsPerSecond() {
+        long elapsedNanos = endNanos - startNanos;
+        return elapsedNanos > 0 ? eventsApplied * 1_000_000_000.0 / elapsedNanos : 0.0;
+    }
+
+    // Freshness lag runs until the event's batch was applied: from the event timestamp for
+    // queue ingestion, from the moment the line was read for file replay
+    public double getAverageLagMillis() {
+        return eventsApplied > 0 ? (double) totalLagMillis / eventsApplied : 0.0;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+
+    public void printStats() {
+        System.out.println("Events applied: " + eventsApplied + ", dropped: " + eventsDropped
+                           + ", user batches: " + batchesApplied);
+        System.out.printf("Throughput: %.0f events/sec%n", getEventsPerSecond());
+        System.out.printf("Freshness lag: avg %.2f ms, max %d ms%n", getAverageLagMillis(), maxLagMillis);
+    }
+}
+
 class UserDataProtection {
     private static final String ENCRYPTION_ALGORITHM = "AES";
     private static final String HASHING_ALGORITHM = "SHA-256";
@@ -232,26 +409,86 @@ class UserDataProtection {
 }
 
 class MusicRecommendationSystem {
+    private static final int SIMILARITY_WINDOW = 10;
+    private static final int MIN_RATINGS_FOR_CF = 3;
+    private static final int RANDOM_WALK_SEEDS = 5;
+
     private Map<String, UserProfile> userProfiles;
     private Map<String, MusicItem> musicCatalog;
+    private Map<String, MusicItem> musicItemsByTitle;
     private Map<String, Map<String, Double>> itemSimilarities;
     private UserDataProtection userDataProtection;
+    private MusicCatalog catalog;
 
     public MusicRecommendationSystem() {
         this.userProfiles = new HashMap<>();
         this.musicCatalog = new HashMap<>();
+        this.musicItemsByTitle = new HashMap<>();
         this.itemSimilarities = new HashMap<>();
         this.userDataProtection = new UserDataProtection();
     }
 
     public void addMusicItem(MusicItem musicItem) {
         musicCatalog.put(musicItem.getItemId(), musicItem);
+        musicItemsByTitle.put(musicItem.getTitle(), musicItem);
+    }
+
+    // Catalog graph used for random-walk recommendations; its songs are matched by title
+    public void setCatalog(MusicCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    public boolean containsMusicItem(String itemId) {
+        return musicCatalog.containsKey(itemId);
     }
 
     public void addUserRating(String userId, String itemId, double rating) {
+        applyRatingBatch(userId, List.of(new RatingEvent(userId, itemId, rating, System.currentTimeMillis())));
+    }
+
+    // Applies all events of one user at once: the profile, the co-rating similarities and
+    // the encrypted copy are each updated once per batch instead of once per event.
+    public void applyRatingBatch(String userId, List<RatingEvent> events) {
         UserProfile userProfile = getUserProfile(userId);
-        userProfile.addToListeningHistory(musicCatalog.get(itemId));
-        userProfile.updatePreferences(musicCatalog.get(itemId));
+        LinkedList<String> recentItemIds = new LinkedList<>();
+        for (MusicItem item : userProfile.getListeningHistory()) {
+            if (recentItemIds.size() >= SIMILARITY_WINDOW) {
+                break;
+            }
+            recentItemIds.add(item.getItemId());
+        }
+
+        List<MusicItem> ratedItems = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        for (RatingEvent event : events) {
+            MusicItem item = musicCatalog.get(event.getItemId());
+            if (item != null && event.hasValidRating()) {
+                ratedItems.add(item);
+                weights.add(event.getRating());
+            }
+        }
+        if (ratedItems.isEmpty()) {
+            return;
+        }
+        userProfile.applyRatings(ratedItems, weights);
+
+        // Items earlier in the batch join the window as it is walked, so a batch yields the
+        // same similarities as applying its events one by one
+        for (int i = 0; i < ratedItems.size(); i++) {
+            String itemId = ratedItems.get(i).getItemId();
+            double increment = weights.get(i) / RatingEvent.MAX_RATING / SIMILARITY_WINDOW;
+            for (String recentItemId : recentItemIds) {
+                if (!recentItemId.equals(itemId)) {
+                    double similarity = itemSimilarities.getOrDefault(itemId, Collections.emptyMap())
+                                                        .getOrDefault(recentItemId, 0.0);
+                    addItemSimilarity(itemId, recentItemId, Math.min(1.0, similarity + increment));
+                }
+            }
+            recentItemIds.addFirst(itemId);
+            if (recentItemIds.size() > SIMILARITY_WINDOW) {
+                recentItemIds.removeLast();
+            }
+        }
         userDataProtection.storeUserData(userId, userProfile);
     }
 
@@ -264,18 +501,62 @@ class MusicRecommendationSystem {
 
     public List<MusicItem> recommendItems(String userId, int k) {
         UserProfile userProfile = getUserProfile(userId);
+        // Song preferences hold one entry per distinct rated song, so repeat ratings don't count
+        if (catalog == null || userProfile.getSongPreferences().size() >= MIN_RATINGS_FOR_CF) {
+            return recommendItemsByCollaborativeFiltering(userProfile, k);
+        }
+
+        // Too few ratings for collaborative filtering, walk the catalog graph first and top up
+        // with collaborative results when the user has no seed songs or the walks reach too few
+        List<MusicItem> result = recommendItemsByGraph(userId, k);
+        if (result.size() < k) {
+            Set<MusicItem> excluded = new HashSet<>(result);
+            excluded.addAll(userProfile.getListeningHistory());
+            for (MusicItem item : recommendItemsByCollaborativeFiltering(userProfile, k)) {
+                if (result.size() < k && excluded.add(item)) {
+                    result.add(item);
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<MusicItem> recommendItemsByCollaborativeFiltering(UserProfile userProfile, int k) {
         List<String> similarUsers = findSimilarUsers(userProfile, k);
-        List<String> recommendations = aggregateRecommendations(similarUsers, k);
+        List<String> recommendations = aggregateRecommendations(userProfile, similarUsers, k);
         List<MusicItem> result = new ArrayList<>();
-        for (String itemId : recommendations) {
-            MusicItem item = musicCatalog.get(itemId);
+        // Song preferences, and so the aggregated recommendations, are keyed by title
+        for (String title : recommendations) {
+            MusicItem item = musicItemsByTitle.get(title);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    // Personalized random walks over the catalog graph, restarting at the user's recent songs
+    public List<MusicItem> recommendItemsByGraph(String userId, int k) {
+        List<MusicItem> result = new ArrayList<>();
+        if (catalog == null) {
+            return result;
+        }
+        UserProfile userProfile = getUserProfile(userId);
+        List<String> seedSongs = new ArrayList<>();
+        Set<String> heardSongs = new HashSet<>();
+        for (MusicItem item : userProfile.getListeningHistory()) {
+            if (heardSongs.add(item.getTitle()) && seedSongs.size() < RANDOM_WALK_SEEDS) {
+                seedSongs.add(item.getTitle());
+            }
+        }
+        for (String title : catalog.recommendSongs(seedSongs, heardSongs, k)) {
+            MusicItem item = musicItemsByTitle.get(title);
             if (item != null) {
                 result.add(item);
             }
         }
         return result;
     }
-    
 
     private UserProfile getUserProfile(String userId) {
         if (!userProfiles.containsKey(userId)) {
@@ -313,25 +594,30 @@ class MusicRecommendationSystem {
         double dotProduct = 0.0;
         double profile1Norm = 0.0;
         double profile2Norm = 0.0;
-        for (Map.Entry<String, Integer> entry : profile1.getGenrePreferences().entrySet()) {
+        for (Map.Entry<String, Double> entry : profile1.getGenrePreferences().entrySet()) {
             if (profile2.getGenrePreferences().containsKey(entry.getKey())) {
                 dotProduct += entry.getValue() * profile2.getGenrePreferences().get(entry.getKey());
             }
             profile1Norm += entry.getValue() * entry.getValue();
         }
-        for (int count : profile2.getGenrePreferences().values()) {
-            profile2Norm += count * count;
+        for (double weight : profile2.getGenrePreferences().values()) {
+            profile2Norm += weight * weight;
         }
         return dotProduct / (Math.sqrt(profile1Norm) * Math.sqrt(profile2Norm));
     }
 
-    private List<String> aggregateRecommendations(List<String> similarUsers, int k) {
+    private List<String> aggregateRecommendations(UserProfile targetUserProfile, List<String> similarUsers, int k) {
+        // Song preferences are keyed by title, so skip titles the target user already rated
+        Set<String> heardSongs = new HashSet<>();
+        for (MusicItem item : targetUserProfile.getListeningHistory()) {
+            heardSongs.add(item.getTitle());
+        }
         Map<String, Double> recommendationScores = new HashMap<>();
         for (String userId : similarUsers) {
             UserProfile userProfile = getUserProfile(userId);
-            for (Map.Entry<String, Integer> entry : userProfile.getSongPreferences().entrySet()) {
-                if (!userProfile.getListeningHistory().contains(musicCatalog.get(entry.getKey()))) {
-                    recommendationScores.merge(entry.getKey(), (double) entry.getValue(), Double::sum);
+            for (Map.Entry<String, Double> entry : userProfile.getSongPreferences().entrySet()) {
+                if (!heardSongs.contains(entry.getKey())) {
+                    recommendationScores.merge(entry.getKey(), entry.getValue(), Double::sum);
                 }
             }
         }